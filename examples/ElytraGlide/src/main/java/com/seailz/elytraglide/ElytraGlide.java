@@ -39,6 +39,9 @@ public final class ElytraGlide extends JavaPlugin {
         bus = Flaps.getInstance();
         System.out.println(Flaps.getInstance());
 
+        // Keep roll in the shaders when Flaps hosts the pack
+        bus.useEffects(FlapsEffect.ROLL);
+
         // Drive roll based on yaw rate during elytra flight
         Bukkit.getScheduler().runTaskTimer(this, this::updateRollFromYaw, 1L, 1L);
     }
@@ -8,7 +8,21 @@
 // - Presets: WINTER (blizzard), HOT (desert heat), CAVE (dark cave haze)
 // =============================================================================
 
-
+// -----------------------------------------------------------------------------
+// Effect gates
+// -----------------------------------------------------------------------------
+// One define per FlapsEffect id. The shipped pack compiles every built-in
+// effect in. When Flaps hosts the pack, FlapsShaderSpecializer rewrites the
+// lines between the markers so only the effects declared through
+// Flaps#useEffects or the config's effects list are compiled. If none are
+// declared, every effect is kept.
+// @eg-effects-begin
+#define EG_EFFECT_ROLL
+#define EG_EFFECT_SHAKE
+#define EG_EFFECT_HEAT_DISTORTION
+#define EG_EFFECT_WINTER
+#define EG_EFFECT_DESERT_HEAT
+// @eg-effects-end
 
 // -----------------------------------------------------------------------------
 // Bus decoding
@@ -73,6 +87,7 @@ float eg_smoothnoise(vec2 p) {
     return mix(mix(a, b, u.x), mix(c, d, u.x), u.y);
 }
 
+#ifdef EG_EFFECT_WINTER
 // -----------------------------------------------------------------------------
 // WINTER preset rendering
 // -----------------------------------------------------------------------------
@@ -182,7 +197,9 @@ vec4 winter_effect(vec4 color, float gameTime, vec2 screenUV, float viewDist) {
 
     return vec4(clamp(c, 0.0, 1.0), color.a);
 }
+#endif
 
+#ifdef EG_EFFECT_DESERT_HEAT
 // -----------------------------------------------------------------------------
 // HOT / DESERT preset rendering
 // -----------------------------------------------------------------------------
@@ -263,7 +280,7 @@ vec4 hot_desert_effect(vec4 color, float gameTime, vec2 uv01, float viewDist) {
 
     return vec4(c, color.a);
 }
-
+#endif
 
 // -----------------------------------------------------------------------------
 // CAVE preset rendering
@@ -404,12 +421,16 @@ vec4 eg_apply_fragment_effects(vec4 color, float gameTime, vec2 screenUV, float
 
     vec4 outColor = color;
 
+#ifdef EG_EFFECT_WINTER
     if (eg_has(b, EG_EFF_WINTER)) {
         outColor = winter_effect(outColor, b.day01, screenUV, viewDist);
     }
+#endif
+#ifdef EG_EFFECT_DESERT_HEAT
     if (eg_has(b, EG_EFF_HOT)) {
         outColor = hot_desert_effect(outColor, b.day01, screenUV, viewDist);
     }
+#endif
 
     return outColor;
 }
@@ -4,6 +4,25 @@
     EG Effects Vertex Library (core-shader include)
 */
 
+/* ============================================================================
+   EFFECT GATES
+   ----------------------------------------------------------------------------
+   - One define per FlapsEffect id; every built-in effect is compiled in by
+     default.
+   - When Flaps hosts the pack, FlapsShaderSpecializer rewrites the lines
+     between the markers so only the effects declared through
+     Flaps#useEffects or the config's effects list are compiled. If none are
+     declared, every effect is kept.
+   ============================================================================ */
+
+// @eg-effects-begin
+#define EG_EFFECT_ROLL
+#define EG_EFFECT_SHAKE
+#define EG_EFFECT_HEAT_DISTORTION
+#define EG_EFFECT_WINTER
+#define EG_EFFECT_DESERT_HEAT
+// @eg-effects-end
+
 /* ============================================================================
    LIBRARY
    ============================================================================ */
@@ -100,6 +119,7 @@ float eg_is_max_signal(float gameTime01) {
 
 
 
+#ifdef EG_EFFECT_ROLL
 /* ============================================================================
    3) EXAMPLE EFFECT A: ROLL (disabled by default)
    ----------------------------------------------------------------------------
@@ -141,7 +161,9 @@ vec4 eg_apply_roll(vec4 clip, EgBus b) {
     clip.xy = mat2(c, -s, s, c) * clip.xy;
     return clip;
 }
+#endif
 
+#ifdef EG_EFFECT_SHAKE
 /* ============================================================================
    4) EXAMPLE EFFECT B: SCREEN SHAKE (enabled by default)
    ----------------------------------------------------------------------------
@@ -169,7 +191,9 @@ vec4 eg_example_shake(vec4 clip, float gameTime01) {
     clip.xy += jitter * (EG_SHAKE_MAX_NDC) * clip.w;
     return clip;
 }
+#endif
 
+#ifdef EG_EFFECT_HEAT_DISTORTION
 /* ============================================================================
    5) EXAMPLE EFFECT C: DESERT
    ----------------------------------------------------------------------------
@@ -204,6 +228,7 @@ vec4 eg_apply_heat_vertex_wobble(vec4 clipPos, float gameTime) {
 
     return clipPos;
 }
+#endif
 
 /* ============================================================================
    6) USER HOOK: ADD YOUR OWN EFFECT HERE
@@ -230,9 +255,15 @@ vec4 eg_apply_vertex_effects(vec4 clip, float gameTime01) {
 
     vec4 outClip = clip;
 
+#ifdef EG_EFFECT_ROLL
     if (eg_has(b, EG_EFF_ROLL))  outClip = eg_apply_roll(outClip, b);
+#endif
+#ifdef EG_EFFECT_SHAKE
     if (eg_has(b, EG_EFF_SHAKE)) outClip = eg_example_shake(outClip, gameTime01);
+#endif
+#ifdef EG_EFFECT_HEAT_DISTORTION
     if (eg_has(b, EG_EFF_HEAT))  outClip = eg_apply_heat_vertex_wobble(outClip, gameTime01);
+#endif
 
     return outClip;
 
@@ -16,7 +16,9 @@ import org.jetbrains.annotations.CheckReturnValue;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiFunction;
@@ -42,6 +44,12 @@ public final class Flaps {
     // Optional override for generating a custom timeOfDay per player each tick.
     private volatile BiFunction<Player, FlapsPlayerState, Long> customTimeProvider = null;
 
+    // Effects declared through useEffects(), used to decide which shader blocks the hosted packs keep.
+    private final Set<FlapsEffect> usedEffects = ConcurrentHashMap.newKeySet();
+    // Effects the hosted packs were built with; null while not hosting or when the packs keep every effect.
+    private volatile Set<FlapsEffect> packEffects = null;
+    private final Set<FlapsEffect> warnedEffects = ConcurrentHashMap.newKeySet();
+
     /**
      * Makes an instance of Flaps, the main controller for effects.
      * @param plugin The plugin instance.
@@ -70,6 +78,39 @@ public final class Flaps {
         return instance;
     }
 
+    /**
+     * Declares the effects your plugin uses.
+     * <p>When Flaps hosts the resource pack, only declared effects (plus any listed in its config) are compiled into the
+     * shaders, so clients don't pay for effects no plugin uses. Call this in onEnable(); the packs are built on the first
+     * server tick. If no effects are declared anywhere, the packs keep every effect.
+     * @param effects The effects to keep in the shaders.
+     */
+    @Contract(value = "_ -> this", mutates = "this")
+    public Flaps useEffects(@NotNull FlapsEffect... effects) {
+        usedEffects.addAll(List.of(effects));
+        return this;
+    }
+
+    /** The effects declared through {@link #useEffects(FlapsEffect...)}. */
+    public @NotNull Set<FlapsEffect> usedEffects() {
+        return Set.copyOf(usedEffects);
+    }
+
+    /** Internal: records the effects the hosted packs were built with, or null if they keep every effect. */
+    void packEffects(Set<FlapsEffect> effects) {
+        this.packEffects = effects != null ? Set.copyOf(effects) : null;
+    }
+
+    /** Internal: warns once per effect when an effect is enabled that the hosted packs were built without. */
+    void checkCompiled(@NotNull FlapsEffect effect) {
+        Set<FlapsEffect> compiled = packEffects;
+        if (compiled == null || compiled.contains(effect) || !warnedEffects.add(effect)) return;
+
+        plugin.getLogger().warning("Effect " + effect.id() + " was enabled, but the hosted packs were built without it,"
+                + " so clients won't show it. Declare it with Flaps.getInstance().useEffects(...) in onEnable()"
+                + " or add it to 'effects' in the Flaps config.");
+    }
+
     /**
      * Starts sending packets to players. Call in onEnable().
      */
@@ -2,6 +2,8 @@ package com.seailz.flaps;
 
 import com.seailz.flaps.utils.FlapsCodec;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.function.BiFunction;
 
 /**
@@ -14,13 +16,19 @@ import java.util.function.BiFunction;
  * <p>There are five default effects provided: ROLL, SHAKE, HEAT_DISTORTION
  * (vertex), and the fragment presets WINTER and DESERT_HEAT. If you override these in the shader, then you can reuse bits 0-4 for your own effects. With the current codec, there is a limitation of 7 effects total. You may also override the codec and use your own
  * packing scheme if you wish. See {@link Flaps#setCustomTimeProvider(BiFunction)} for more details.
+ *
+ * <p>Effect ids are unique: built-in and custom effects are registered by id so {@link #parse(String)} can find them.
+ * Bits are not, since a pack that overrides the shader may reuse them.
  */
 public final class FlapsEffect {
-    public static final FlapsEffect ROLL = new FlapsEffect("ROLL", 0);
-    public static final FlapsEffect SHAKE = new FlapsEffect("SHAKE", 1);
-    public static final FlapsEffect HEAT_DISTORTION = new FlapsEffect("HEAT_DISTORTION", 2);
-    public static final FlapsEffect WINTER = new FlapsEffect("WINTER", 3);
-    public static final FlapsEffect DESERT_HEAT = new FlapsEffect("DESERT_HEAT", 4);
+    // Must be initialised before the built-in effects below register themselves.
+    private static final Map<String, FlapsEffect> REGISTRY = new HashMap<>();
+
+    public static final FlapsEffect ROLL = register(new FlapsEffect("ROLL", 0));
+    public static final FlapsEffect SHAKE = register(new FlapsEffect("SHAKE", 1));
+    public static final FlapsEffect HEAT_DISTORTION = register(new FlapsEffect("HEAT_DISTORTION", 2));
+    public static final FlapsEffect WINTER = register(new FlapsEffect("WINTER", 3));
+    public static final FlapsEffect DESERT_HEAT = register(new FlapsEffect("DESERT_HEAT", 4));
 
     private final String id;
     private final int bit;
@@ -33,9 +41,79 @@ public final class FlapsEffect {
         this.bit = bit;
     }
 
-    /** Create a custom effect bound to a specific bit. */
+    /**
+     * Create a custom effect bound to a specific bit.
+     * <p>Calling this again with the same id and bit (e.g. when your plugin is reloaded) returns the existing effect.
+     * @throws IllegalArgumentException If an effect with this id is already bound to a different bit.
+     */
     public static FlapsEffect custom(String id, int bit) {
-        return new FlapsEffect(id, bit);
+        return register(new FlapsEffect(id, bit));
+    }
+
+    /**
+     * Looks up a registered effect by id.
+     * @param id The effect id, e.g. <code>ROLL</code>.
+     * @return The effect, or null if no effect with that id has been created.
+     */
+    public static FlapsEffect byId(String id) {
+        synchronized (REGISTRY) {
+            return REGISTRY.get(id);
+        }
+    }
+
+    /**
+     * Parses an effect given as a registered id (e.g. <code>ROLL</code>) or as <code>ID:bit</code>, as used in the
+     * config and on the command line.
+     * <p><code>ID:bit</code> returns the registered effect if it matches, otherwise a new effect that is <b>not</b>
+     * registered, so parsing never changes what {@link #byId(String)} returns.
+     * @throws IllegalArgumentException If the id is unknown, or is already bound to a different bit.
+     */
+    public static FlapsEffect parse(String value) {
+        int colon = value.indexOf(':');
+        String id = colon >= 0 ? value.substring(0, colon) : value;
+
+        synchronized (REGISTRY) {
+            FlapsEffect existing = REGISTRY.get(id);
+            if (colon < 0) {
+                if (existing == null) {
+                    throw new IllegalArgumentException("Unknown effect: " + value + " (use ID:bit for custom effects)");
+                }
+                return existing;
+            }
+
+            int bit;
+            try {
+                bit = Integer.parseInt(value.substring(colon + 1));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid bit in effect: " + value);
+            }
+
+            if (existing != null) {
+                checkBit(existing, bit);
+                return existing;
+            }
+            return new FlapsEffect(id, bit);
+        }
+    }
+
+    private static FlapsEffect register(FlapsEffect effect) {
+        synchronized (REGISTRY) {
+            FlapsEffect existing = REGISTRY.putIfAbsent(effect.id, effect);
+            if (existing == null) return effect;
+
+            checkBit(existing, effect.bit);
+            return existing;
+        }
+    }
+
+    private static void checkBit(FlapsEffect existing, int bit) {
+        if (existing.bit != bit) {
+            throw new IllegalArgumentException("Effect " + existing.id + " is already bound to bit " + existing.bit);
+        }
+    }
+
+    public String id() {
+        return id;
     }
 
     public int bit() {
@@ -47,6 +125,16 @@ public final class FlapsEffect {
         return 1 << bit;
     }
 
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof FlapsEffect other && id.equals(other.id) && bit == other.bit;
+    }
+
+    @Override
+    public int hashCode() {
+        return id.hashCode() * 31 + bit;
+    }
+
     @Override
     public String toString() {
         return "FlapsEffect{" + id + ":bit=" + bit + "}";
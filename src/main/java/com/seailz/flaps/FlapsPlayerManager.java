@@ -35,6 +35,7 @@ public final class FlapsPlayerManager {
     @Contract(value = "_ -> this", mutates = "this")
     @CheckReturnValue
     public FlapsPlayerManager enable(@NotNull FlapsEffect effect) {
+        bus.checkCompiled(effect);
         pendingMaskOr |= effect.mask();
         return this;
     }
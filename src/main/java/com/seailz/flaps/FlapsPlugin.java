@@ -1,6 +1,12 @@
 package com.seailz.flaps;
 
 import com.comphenix.protocol.ProtocolLibrary;
+import com.comphenix.protocol.ProtocolManager;
+import com.seailz.flaps.pack.FlapsBundledPacks;
+import com.seailz.flaps.pack.FlapsPack;
+import com.seailz.flaps.pack.FlapsPackBuilder;
+import com.seailz.flaps.pack.FlapsPackHost;
+import com.seailz.flaps.pack.FlapsPackListener;
 import io.papermc.paper.command.brigadier.Commands;
 import io.papermc.paper.plugin.lifecycle.event.types.LifecycleEvents;
 import net.kyori.adventure.text.Component;
@@ -9,12 +15,25 @@ import net.kyori.adventure.text.event.ClickEvent;
 import net.kyori.adventure.text.event.HoverEvent;
 import net.kyori.adventure.text.format.NamedTextColor;
 import net.kyori.adventure.text.format.TextDecoration;
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.plugin.IllegalPluginAccessException;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+
 public class FlapsPlugin extends JavaPlugin {
 
     private static final String VERSION = "1.0.0";
 
+    private FlapsPackHost packHost;
 
     @Override
     public void onLoad() {
@@ -23,10 +42,16 @@ public class FlapsPlugin extends JavaPlugin {
     @Override
     public void onEnable() {
         super.onEnable();
+        saveDefaultConfig();
 
-        Flaps flp = new Flaps(this,  ProtocolLibrary.getProtocolManager(), true);
+        ProtocolManager protocolManager = ProtocolLibrary.getProtocolManager();
+        Flaps flp = new Flaps(this, protocolManager, true);
         flp.start();
 
+        if (getConfig().getBoolean("pack-host.enabled")) {
+            startPackHost(flp, protocolManager);
+        }
+
         getLifecycleManager().registerEventHandler(LifecycleEvents.COMMANDS, commands -> {
             commands.registrar().register(
                     Commands.literal("flaps").executes(ctx -> {
@@ -57,5 +82,108 @@ public class FlapsPlugin extends JavaPlugin {
     @Override
     public void onDisable() {
         super.onDisable();
+
+        if (packHost != null) {
+            packHost.stop();
+            packHost = null;
+        }
+    }
+
+    /**
+     * Builds the configured packs off the main thread, then starts hosting them and sends them to online players.
+     * <p>The build waits for the first server tick so plugins that depend on Flaps have declared their effects.
+     */
+    private void startPackHost(Flaps flaps, ProtocolManager protocolManager) {
+        ConfigurationSection cfg = getConfig().getConfigurationSection("pack-host");
+        int port = cfg.getInt("port", 8163);
+
+        String publicUrl = cfg.getString("public-url", "");
+        if (publicUrl.isEmpty()) {
+            String ip = Bukkit.getIp();
+            publicUrl = "http://" + (ip.isEmpty() ? "localhost" : ip) + ":" + port;
+            if (ip.isEmpty()) {
+                getLogger().warning("pack-host.public-url is not set and server-ip is empty; clients will be sent " + publicUrl);
+            }
+        }
+
+        packHost = new FlapsPackHost(new InetSocketAddress(cfg.getString("bind", "0.0.0.0"), port), publicUrl);
+        FlapsPackHost host = packHost;
+
+        FlapsPackListener listener = new FlapsPackListener(host, protocolManager, cfg.getBoolean("required"));
+        getServer().getPluginManager().registerEvents(listener, this);
+
+        List<Map<?, ?>> packs = cfg.getMapList("packs");
+
+        Bukkit.getScheduler().runTask(this, () -> {
+            Set<FlapsEffect> effects = usedEffects(flaps);
+            Bukkit.getScheduler().runTaskAsynchronously(this, () -> buildAndHost(flaps, host, listener, packs, effects, port));
+        });
+    }
+
+    private void buildAndHost(Flaps flaps, FlapsPackHost host, FlapsPackListener listener, List<Map<?, ?>> packs, Set<FlapsEffect> effects, int port) {
+        Path dataFolder = getDataFolder().toPath();
+        try {
+            Path packsDir = dataFolder.resolve("packs");
+            if (FlapsBundledPacks.sync(getFile().toPath(), packsDir)) {
+                getLogger().info("Extracted the bundled packs to " + packsDir + " (edited folders were moved to packs-previous)");
+            }
+
+            Path cacheDir = dataFolder.resolve("cache");
+            FlapsPackBuilder builder = (effects.isEmpty() ? new FlapsPackBuilder(cacheDir) : new FlapsPackBuilder(cacheDir, effects))
+                    .logger(getLogger());
+            for (Map<?, ?> entry : packs) {
+                Object name = entry.get("name");
+                if (name == null || !(entry.get("min-protocol") instanceof Number minProtocol)) {
+                    getLogger().warning("Skipping pack-host.packs entry " + entry + ": it needs a name and a numeric min-protocol");
+                    continue;
+                }
+
+                try {
+                    FlapsPack pack = builder.build(name.toString(), packsDir.resolve(name.toString()), dataFolder.resolve("build"));
+                    host.register(pack, minProtocol.intValue());
+                    getLogger().info("Built pack " + name + " (sha1 " + pack.sha1() + ", " + pack.rebuiltFiles() + " shaders rebuilt)");
+                } catch (IOException | RuntimeException e) {
+                    getLogger().log(Level.SEVERE, "Failed to build pack " + name + ", skipping it", e);
+                }
+            }
+
+            // A stopped host ignores start(), so a reload mid-build doesn't leave the port bound
+            host.start();
+            if (!host.isRunning()) return;
+
+            if (effects.isEmpty()) {
+                flaps.packEffects(null);
+                getLogger().info("Hosting resource packs on port " + port + " with every effect"
+                        + " (none declared through the config's 'effects' or Flaps#useEffects)");
+            } else {
+                flaps.packEffects(effects);
+                getLogger().info("Hosting resource packs on port " + port + " built with effects "
+                        + effects.stream().map(FlapsEffect::id).sorted().toList());
+            }
+        } catch (IOException | RuntimeException e) {
+            getLogger().log(Level.SEVERE, "Failed to start the resource pack host", e);
+            return;
+        }
+
+        try {
+            // Players who joined while the packs were building
+            Bukkit.getScheduler().runTask(this, () -> Bukkit.getOnlinePlayers().forEach(listener::sendIfMissing));
+        } catch (IllegalPluginAccessException ignored) {
+            // Disabled while the packs were building; onDisable() has already stopped the host
+        }
+    }
+
+    /** The effects listed in the config plus those declared through {@link Flaps#useEffects(FlapsEffect...)}. */
+    private Set<FlapsEffect> usedEffects(Flaps flaps) {
+        Set<FlapsEffect> effects = new LinkedHashSet<>();
+        for (String id : getConfig().getStringList("effects")) {
+            try {
+                effects.add(FlapsEffect.parse(id));
+            } catch (IllegalArgumentException e) {
+                getLogger().warning("Ignoring effect '" + id + "': " + e.getMessage());
+            }
+        }
+        effects.addAll(flaps.usedEffects());
+        return effects;
     }
 }
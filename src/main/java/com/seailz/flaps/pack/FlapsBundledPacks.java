@@ -0,0 +1,155 @@
+package com.seailz.flaps.pack;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Keeps the packs bundled in the plugin jar in sync with the copies in the data folder.
+ *
+ * <p>The bundled packs are fingerprinted and the fingerprint is stored in <code>packs/.bundled</code>, along with a hash
+ * of each pack folder as extracted. Whenever the jar ships different packs (i.e. after an upgrade), each bundled pack
+ * folder is replaced by the new one. A folder that was edited since it was extracted is first moved to
+ * <code>packs-previous/&lt;name&gt;-&lt;hash&gt;</code>, named after its content so an existing backup is never
+ * overwritten. Folders that aren't bundled (your own packs) are left alone. Extraction goes through a temporary
+ * folder and the marker is written last, so an interrupted extraction is simply redone on the next start.
+ */
+public final class FlapsBundledPacks {
+    private static final String JAR_PREFIX = "packs/";
+    private static final String MARKER = ".bundled";
+
+    private FlapsBundledPacks() {}
+
+    /**
+     * Extracts the bundled packs if they're missing or out of date.
+     * @param jar The plugin jar.
+     * @param packsDir The folder holding the pack sources, e.g. <code>plugins/Flaps/packs</code>.
+     * @return Whether anything was extracted.
+     */
+    public static boolean sync(Path jar, Path packsDir) throws IOException {
+        try (ZipFile zip = new ZipFile(jar.toFile())) {
+            List<ZipEntry> entries = bundledEntries(zip);
+            if (entries.isEmpty()) return false;
+
+            String fingerprint = fingerprint(entries);
+            Path marker = packsDir.resolve(MARKER);
+            Map<String, String> extracted = new HashMap<>();
+            if (Files.isRegularFile(marker)) {
+                List<String> lines = Files.readAllLines(marker, StandardCharsets.UTF_8);
+                if (!lines.isEmpty() && lines.get(0).equals(fingerprint)) return false;
+
+                // Markers written before folder hashes were recorded only have the first line, so every folder is backed up
+                for (String line : lines.subList(Math.min(1, lines.size()), lines.size())) {
+                    int space = line.indexOf(' ');
+                    if (space > 0) extracted.put(line.substring(space + 1), line.substring(0, space));
+                }
+            }
+
+            Path tmp = packsDir.resolveSibling(packsDir.getFileName() + ".tmp");
+            deleteRecursively(tmp);
+            for (ZipEntry entry : entries) {
+                Path out = tmp.resolve(entry.getName().substring(JAR_PREFIX.length())).normalize();
+                if (!out.startsWith(tmp)) continue;
+
+                Files.createDirectories(out.getParent());
+                try (InputStream in = zip.getInputStream(entry)) {
+                    Files.copy(in, out);
+                }
+            }
+
+            StringBuilder markerContent = new StringBuilder(fingerprint).append('\n');
+            Path previous = packsDir.resolveSibling(packsDir.getFileName() + "-previous");
+            Files.createDirectories(packsDir);
+            try (Stream<Path> packs = Files.list(tmp)) {
+                for (Path pack : (Iterable<Path>) packs::iterator) {
+                    String name = pack.getFileName().toString();
+                    String hash = hashFolder(pack);
+                    markerContent.append(hash).append(' ').append(name).append('\n');
+
+                    Path target = packsDir.resolve(name);
+                    if (Files.exists(target)) {
+                        String current = hashFolder(target);
+                        if (current.equals(extracted.get(name)) || current.equals(hash)) {
+                            // Not edited since it was extracted, or already the new version
+                            deleteRecursively(target);
+                        } else {
+                            Path backup = previous.resolve(name + "-" + current.substring(0, 12));
+                            Files.createDirectories(previous);
+                            if (Files.exists(backup)) deleteRecursively(target); // Same content is already backed up
+                            else Files.move(target, backup);
+                        }
+                    }
+                    Files.move(pack, target);
+                }
+            }
+            deleteRecursively(tmp);
+
+            Files.writeString(marker, markerContent, StandardCharsets.UTF_8);
+            return true;
+        }
+    }
+
+    private static List<ZipEntry> bundledEntries(ZipFile zip) {
+        List<ZipEntry> entries = new ArrayList<>();
+        Enumeration<? extends ZipEntry> all = zip.entries();
+        while (all.hasMoreElements()) {
+            ZipEntry entry = all.nextElement();
+            if (!entry.isDirectory() && entry.getName().startsWith(JAR_PREFIX)) entries.add(entry);
+        }
+        entries.sort(Comparator.comparing(ZipEntry::getName));
+        return entries;
+    }
+
+    /** Hash of every file's relative path and content in a folder, used to tell whether it was edited. */
+    private static String hashFolder(Path root) throws IOException {
+        MessageDigest md = sha256();
+        try (Stream<Path> walk = Files.walk(root)) {
+            for (Path p : (Iterable<Path>) walk.filter(Files::isRegularFile).sorted()::iterator) {
+                md.update((root.relativize(p).toString().replace('\\', '/') + '\0').getBytes(StandardCharsets.UTF_8));
+                md.update(sha256().digest(Files.readAllBytes(p)));
+            }
+        }
+        return HexFormat.of().formatHex(md.digest());
+    }
+
+    /** Hash of the bundled entries' names, sizes and CRCs; cheap, as nothing needs to be decompressed. */
+    private static String fingerprint(List<ZipEntry> entries) {
+        MessageDigest md = sha256();
+        for (ZipEntry entry : entries) {
+            md.update((entry.getName() + '\0' + entry.getSize() + '\0' + entry.getCrc() + '\n').getBytes(StandardCharsets.UTF_8));
+        }
+        return HexFormat.of().formatHex(md.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static void deleteRecursively(Path root) throws IOException {
+        if (!Files.exists(root)) return;
+
+        try (Stream<Path> walk = Files.walk(root)) {
+            for (Path p : (Iterable<Path>) walk.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(p);
+            }
+        }
+    }
+}
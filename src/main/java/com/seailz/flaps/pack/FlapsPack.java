@@ -0,0 +1,19 @@
+package com.seailz.flaps.pack;
+
+import java.nio.file.Path;
+import java.util.HexFormat;
+
+/**
+ * A built resource pack, as produced by {@link FlapsPackBuilder}.
+ * @param name The pack name, usually the source folder (e.g. <code>1.21.8</code>).
+ * @param file The zipped pack.
+ * @param sha1 Lowercase hex SHA-1 of the zip, as sent to clients and used as the HTTP ETag.
+ * @param rebuiltFiles How many shader files had to be regenerated; 0 when everything came from the cache.
+ */
+public record FlapsPack(String name, Path file, String sha1, int rebuiltFiles) {
+
+    /** The SHA-1 as raw bytes, for <code>Player#setResourcePack</code>. */
+    public byte[] sha1Bytes() {
+        return HexFormat.of().parseHex(sha1);
+    }
+}
@@ -0,0 +1,242 @@
+package com.seailz.flaps.pack;
+
+import com.seailz.flaps.FlapsEffect;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Builds zipped resource packs from a source folder (e.g. <code>resourcepack/1.21.8</code>).
+ *
+ * <p>Vanilla shaders are run through {@link FlapsShaderInjector} and the effect includes through
+ * {@link FlapsShaderSpecializer}. Each transformed file is cached by the hash of its content, so a rebuild only
+ * regenerates shaders that changed, and the zip itself is only rewritten when some entry changed. Every pack has its
+ * own cache folder, and entries the latest build didn't use are deleted. Entries are
+ * sorted and timestamped with a fixed date, so the same inputs always produce the same SHA-1 and clients keep
+ * their cached copy.
+ */
+public final class FlapsPackBuilder {
+    // Bump when the injector or specializer output changes so stale cache entries are ignored
+    private static final String CACHE_VERSION = "1";
+    private static final LocalDateTime ZIP_TIME = LocalDateTime.of(2000, 1, 1, 0, 0);
+    // Only shaders directly in here are loaded by the game; subfolders like archive/ are shipped as-is
+    private static final String CORE_SHADERS = "assets/minecraft/shaders/core/";
+
+    private final Path cacheDir;
+    private final List<FlapsEffect> effects; // null keeps the includes as shipped
+    private final String effectsKey;
+    private Logger logger = Logger.getLogger(FlapsPackBuilder.class.getName());
+
+    /**
+     * A builder that keeps every effect in the includes.
+     * @param cacheDir Where transformed shaders are cached between builds.
+     */
+    public FlapsPackBuilder(Path cacheDir) {
+        this.cacheDir = cacheDir;
+        this.effects = null;
+        this.effectsKey = "";
+    }
+
+    /**
+     * @param cacheDir Where transformed shaders are cached between builds.
+     * @param effects The effects to compile into the packs; every other effect is stripped from the includes.
+     */
+    public FlapsPackBuilder(Path cacheDir, Collection<FlapsEffect> effects) {
+        this.cacheDir = cacheDir;
+        this.effects = List.copyOf(effects);
+
+        List<String> defines = new ArrayList<>();
+        for (FlapsEffect effect : effects) {
+            defines.add(FlapsShaderSpecializer.defineFor(effect));
+        }
+        defines.sort(null);
+        this.effectsKey = String.join(",", defines);
+    }
+
+    /** Where to report problems with pack sources, e.g. the plugin's logger. */
+    public FlapsPackBuilder logger(Logger logger) {
+        this.logger = logger;
+        return this;
+    }
+
+    /**
+     * Builds a pack, reusing cached shaders and the previous zip where possible.
+     * @param name The pack name; the zip is written to <code>outDir/&lt;name&gt;.zip</code>.
+     * @param sourceDir The pack source folder, containing <code>pack.mcmeta</code>.
+     * @param outDir Where to write the zip.
+     * @return The built pack.
+     */
+    public FlapsPack build(String name, Path sourceDir, Path outDir) throws IOException {
+        if (!Files.isRegularFile(sourceDir.resolve("pack.mcmeta"))) {
+            throw new IOException("Not a resource pack (missing pack.mcmeta): " + sourceDir);
+        }
+
+        Map<String, byte[]> entries = new TreeMap<>();
+        MessageDigest manifest = digest("SHA-256");
+        int rebuilt = 0;
+
+        Path packCache = cacheDir.resolve(name);
+        Set<Path> usedCache = new HashSet<>();
+
+        for (Map.Entry<String, Path> file : listFiles(sourceDir).entrySet()) {
+            String path = file.getKey();
+            byte[] in = Files.readAllBytes(file.getValue());
+
+            byte[] out;
+            String kind = transformKind(name, path, in);
+            if (kind == null) {
+                out = in;
+            } else {
+                Path cached = packCache.resolve(cacheKey(kind, in));
+                usedCache.add(cached);
+                if (Files.isRegularFile(cached)) {
+                    out = Files.readAllBytes(cached);
+                } else {
+                    out = transform(kind, path, in);
+                    writeAtomically(cached, out);
+                    rebuilt++;
+                }
+            }
+
+            entries.put(path, out);
+            manifest.update(path.getBytes(StandardCharsets.UTF_8));
+            manifest.update((byte) 0);
+            manifest.update(digest("SHA-256").digest(out));
+        }
+
+        pruneCache(packCache, usedCache);
+
+        Path zip = outDir.resolve(name + ".zip");
+        Path keyFile = outDir.resolve(name + ".key");
+        String zipKey = HexFormat.of().formatHex(manifest.digest());
+
+        byte[] zipBytes;
+        if (Files.isRegularFile(zip) && Files.isRegularFile(keyFile)
+                && Files.readString(keyFile, StandardCharsets.UTF_8).equals(zipKey)) {
+            zipBytes = Files.readAllBytes(zip);
+        } else {
+            zipBytes = zip(entries);
+            writeAtomically(zip, zipBytes);
+            writeAtomically(keyFile, zipKey.getBytes(StandardCharsets.UTF_8));
+        }
+
+        String sha1 = HexFormat.of().formatHex(digest("SHA-1").digest(zipBytes));
+        return new FlapsPack(name, zip, sha1, rebuilt);
+    }
+
+    /** All regular files in the pack, keyed and sorted by their zip path. Backups and hidden files are skipped. */
+    private static Map<String, Path> listFiles(Path root) throws IOException {
+        Map<String, Path> files = new TreeMap<>();
+        try (Stream<Path> walk = Files.walk(root)) {
+            for (Path p : (Iterable<Path>) walk::iterator) {
+                String fileName = p.getFileName().toString();
+                if (!Files.isRegularFile(p) || fileName.startsWith(".") || fileName.endsWith(".bak")) continue;
+
+                files.put(root.relativize(p).toString().replace('\\', '/'), p);
+            }
+        }
+        return files;
+    }
+
+    /** Which transform applies to a file, or null if it's copied as-is. */
+    private String transformKind(String name, String path, byte[] content) {
+        if (FlapsShaderSpecializer.INCLUDES.contains(path)) {
+            if (effects == null) return null;
+
+            String text = new String(content, StandardCharsets.UTF_8);
+            if (!text.contains(FlapsShaderSpecializer.GATES_BEGIN)) {
+                logger.warning(name + "/" + path + " has no " + FlapsShaderSpecializer.GATES_BEGIN
+                        + " markers, so unused effects can't be stripped from it. Update the include to the current pack version.");
+                return null;
+            }
+            return "specialize";
+        }
+        if (!path.startsWith(CORE_SHADERS) || path.indexOf('/', CORE_SHADERS.length()) >= 0) return null;
+        if (path.endsWith(".vsh")) return "inject-vsh";
+        if (path.endsWith(".fsh")) return "inject-fsh";
+        return null;
+    }
+
+    private byte[] transform(String kind, String path, byte[] content) {
+        String text = new String(content, StandardCharsets.UTF_8);
+        String out = kind.equals("specialize")
+                ? FlapsShaderSpecializer.specialize(text, effects)
+                : FlapsShaderInjector.inject(path, text);
+        return out.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private String cacheKey(String kind, byte[] content) {
+        MessageDigest md = digest("SHA-256");
+        // Injection doesn't depend on the effect set, so changing effects only invalidates the includes
+        String header = CACHE_VERSION + '\0' + kind + '\0' + (kind.equals("specialize") ? effectsKey : "") + '\0';
+        md.update(header.getBytes(StandardCharsets.UTF_8));
+        md.update(content);
+        return HexFormat.of().formatHex(md.digest());
+    }
+
+    /** Deletes cache entries the current build didn't use, e.g. for edited shaders or a different effect set. */
+    private static void pruneCache(Path packCache, Set<Path> used) throws IOException {
+        if (!Files.isDirectory(packCache)) return;
+
+        try (Stream<Path> files = Files.list(packCache)) {
+            for (Path p : (Iterable<Path>) files::iterator) {
+                if (!used.contains(p)) Files.deleteIfExists(p);
+            }
+        }
+    }
+
+    private static byte[] zip(Map<String, byte[]> entries) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zos = new ZipOutputStream(bytes)) {
+            zos.setLevel(Deflater.BEST_COMPRESSION);
+            for (Map.Entry<String, byte[]> e : entries.entrySet()) {
+                ZipEntry entry = new ZipEntry(e.getKey());
+                // Local DOS time, so the bytes don't depend on the machine's time zone
+                entry.setTimeLocal(ZIP_TIME);
+                zos.putNextEntry(entry);
+                zos.write(e.getValue());
+                zos.closeEntry();
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeAtomically(Path target, byte[] content) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path tmp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            Files.write(tmp, content);
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static MessageDigest digest(String algorithm) {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(algorithm + " is not available", e);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.seailz.flaps.pack;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A small embedded HTTP server that hosts built packs at <code>/&lt;name&gt;.zip</code>.
+ *
+ * <p>Responses carry the pack's SHA-1 as a strong ETag and honour <code>If-None-Match</code>, so clients and proxies
+ * that already have the pack get a <code>304</code> instead of the whole zip. Packs are picked per client by
+ * protocol version, see {@link #packFor(int)}.
+ *
+ * <p>A host can only be started once; after {@link #stop()} it stays stopped.
+ */
+public final class FlapsPackHost {
+    private final InetSocketAddress address;
+    private final String publicUrl;
+
+    // Keyed by the lowest protocol version each pack supports
+    private final NavigableMap<Integer, Hosted> byProtocol = new ConcurrentSkipListMap<>();
+    private final Map<String, Hosted> byPath = new ConcurrentHashMap<>();
+
+    private HttpServer server;
+    private ExecutorService executor;
+    private volatile boolean running;
+    private boolean stopped;
+
+    private record Hosted(FlapsPack pack, byte[] bytes, String etag) {}
+
+    /**
+     * @param address The address to listen on.
+     * @param publicUrl The base URL clients reach this server at, e.g. <code>http://play.example.com:8163</code>.
+     */
+    public FlapsPackHost(InetSocketAddress address, String publicUrl) {
+        this.address = address;
+        this.publicUrl = publicUrl.endsWith("/") ? publicUrl.substring(0, publicUrl.length() - 1) : publicUrl;
+    }
+
+    /**
+     * Hosts a pack for every client at or above a protocol version, until a pack with a higher minimum is registered.
+     * Registering a pack under an existing protocol version replaces it.
+     * @param pack The built pack.
+     * @param minProtocol The lowest client protocol version the pack supports (e.g. 771 for 1.21.6).
+     */
+    public void register(FlapsPack pack, int minProtocol) throws IOException {
+        Hosted hosted = new Hosted(pack, Files.readAllBytes(pack.file()), '"' + pack.sha1() + '"');
+
+        Hosted previous = byProtocol.put(minProtocol, hosted);
+        if (previous != null) byPath.remove(path(previous.pack()));
+        byPath.put(path(pack), hosted);
+    }
+
+    /**
+     * The pack for a client protocol version: the one with the highest minimum that is still at or below it.
+     * @param protocol The client's protocol version.
+     * @return The pack, or null if the client is older than every registered pack or the host isn't running.
+     */
+    public FlapsPack packFor(int protocol) {
+        // Never hand out a URL nothing is listening on
+        if (!running) return null;
+
+        Map.Entry<Integer, Hosted> entry = byProtocol.floorEntry(protocol);
+        return entry != null ? entry.getValue().pack() : null;
+    }
+
+    /** The URL clients should download a pack from. */
+    public String url(FlapsPack pack) {
+        return publicUrl + path(pack);
+    }
+
+    /** Whether the server is listening, i.e. started and not yet stopped. */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /** Starts listening. Does nothing if already started or stopped. */
+    public synchronized void start() throws IOException {
+        if (server != null || stopped) return;
+
+        executor = Executors.newFixedThreadPool(2, r -> {
+            Thread t = new Thread(r, "Flaps-PackHost");
+            t.setDaemon(true);
+            return t;
+        });
+
+        server = HttpServer.create(address, 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+        running = true;
+    }
+
+    /** Stops listening. The host can't be started again afterwards. */
+    public synchronized void stop() {
+        stopped = true;
+        running = false;
+        if (server == null) return;
+
+        server.stop(0);
+        executor.shutdownNow();
+        server = null;
+        executor = null;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String method = exchange.getRequestMethod();
+            boolean head = method.equals("HEAD");
+            if (!head && !method.equals("GET")) {
+                exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            Hosted hosted = byPath.get(exchange.getRequestURI().getPath());
+            if (hosted == null) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+
+            exchange.getResponseHeaders().set("ETag", hosted.etag());
+            exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+
+            if (matches(exchange.getRequestHeaders().getFirst("If-None-Match"), hosted.etag())) {
+                exchange.sendResponseHeaders(304, -1);
+                return;
+            }
+
+            exchange.getResponseHeaders().set("Content-Type", "application/zip");
+            if (head) {
+                exchange.getResponseHeaders().set("Content-Length", String.valueOf(hosted.bytes().length));
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+
+            exchange.sendResponseHeaders(200, hosted.bytes().length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(hosted.bytes());
+            }
+        }
+    }
+
+    /** Whether an <code>If-None-Match</code> header matches an ETag (weak comparison, as per RFC 9110). */
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) return false;
+
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.startsWith("W/")) candidate = candidate.substring(2);
+            if (candidate.equals("*") || candidate.equals(etag)) return true;
+        }
+        return false;
+    }
+
+    private static String path(FlapsPack pack) {
+        return "/" + pack.name() + ".zip";
+    }
+}
@@ -0,0 +1,67 @@
+package com.seailz.flaps.pack;
+
+import com.comphenix.protocol.ProtocolManager;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sends each joining player the pack hosted for their protocol version.
+ */
+public final class FlapsPackListener implements Listener {
+    private final FlapsPackHost host;
+    private final ProtocolManager protocolManager;
+    private final boolean required;
+
+    // Players already sent a pack this session, so a late build doesn't send it twice
+    private final Set<UUID> sent = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param host The host serving the packs.
+     * @param protocolManager Used to read each client's real protocol version (this also works behind ViaVersion).
+     * @param required Whether clients are kicked if they decline the pack.
+     */
+    public FlapsPackListener(FlapsPackHost host, ProtocolManager protocolManager, boolean required) {
+        this.host = host;
+        this.protocolManager = protocolManager;
+        this.required = required;
+    }
+
+    @EventHandler
+    public void onJoin(PlayerJoinEvent event) {
+        send(event.getPlayer());
+    }
+
+    @EventHandler
+    public void onQuit(PlayerQuitEvent event) {
+        sent.remove(event.getPlayer().getUniqueId());
+    }
+
+    /**
+     * Sends the matching pack to a player. Does nothing if no pack supports their version or the host isn't running yet.
+     * <p>The client skips the download when it already has a pack with the same SHA-1.
+     * @param player The player to send to.
+     */
+    public void send(Player player) {
+        FlapsPack pack = host.packFor(protocolManager.getProtocolVersion(player));
+        if (pack == null) return;
+
+        player.setResourcePack(host.url(pack), pack.sha1Bytes(), required);
+        sent.add(player.getUniqueId());
+    }
+
+    /**
+     * Sends the matching pack to a player unless they were already sent one, e.g. to players who joined before the
+     * host started.
+     * @param player The player to send to.
+     */
+    public void sendIfMissing(Player player) {
+        if (!sent.contains(player.getUniqueId())) send(player);
+    }
+}
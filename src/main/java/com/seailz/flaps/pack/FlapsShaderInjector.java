@@ -0,0 +1,182 @@
+package com.seailz.flaps.pack;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Injects the Flaps hooks into vanilla core shaders.
+ *
+ * <p>This is the Java port of <code>utils/flaps_inject.py</code>: it adds the effect include, the <code>Globals</code>
+ * uniform block and the call into the effect library inside <code>main()</code>. Every step is skipped when
+ * its result is already present, so already-patched shaders pass through unchanged.
+ */
+public final class FlapsShaderInjector {
+    public static final String VSH_IMPORT = "#moj_import <elytraglide:eg_effects_vertex.glsl>";
+    public static final String FSH_IMPORT = "#moj_import <elytraglide:eg_effects_fragment.glsl>";
+
+    private static final String GLOBALS_BLOCK = """
+            layout(std140) uniform Globals {
+                vec2 ScreenSize;
+                float GlintAlpha;
+                float GameTime;
+                float MenuBlurRadius;
+            };
+            """;
+
+    private static final String VERT_SNIPPET = """
+            %1$svec4 eg_clip = %2$s;
+            %1$seg_clip = eg_apply_vertex_effects(eg_clip, GameTime);
+            %1$sgl_Position = eg_clip;""";
+
+    private static final String FRAG_SNIPPET = """
+            %1$svec2 screenUV = gl_FragCoord.xy / ScreenSize;
+            %1$scolor = eg_apply_fragment_effects(color, GameTime, screenUV, sphericalVertexDistance);""";
+
+    private static final Pattern MAIN = Pattern.compile("\\bvoid\\s+main\\s*\\(\\s*\\)\\s*\\{");
+    private static final Pattern GLOBALS = Pattern.compile("layout\\s*\\(\\s*std140\\s*\\)\\s*uniform\\s+Globals\\s*\\{");
+    private static final Pattern GL_POSITION = Pattern.compile("^([ \\t]*)gl_Position\\s*=\\s*([^;]+);", Pattern.MULTILINE);
+    private static final Pattern COLOR_DECL = Pattern.compile("^([ \\t]*)vec4\\s+color\\s*=\\s*([^;]+);", Pattern.MULTILINE);
+    private static final Pattern COLOR_ASSIGN = Pattern.compile("^([ \\t]*)color\\s*=\\s*([^;]+);", Pattern.MULTILINE);
+    private static final Pattern SCREEN_UV = Pattern.compile("\\bvec2\\s+screenUV\\s*=\\s*gl_FragCoord\\.xy\\s*/\\s*ScreenSize\\s*;");
+
+    private FlapsShaderInjector() {}
+
+    /**
+     * Injects the Flaps hooks into a shader.
+     * @param fileName The shader file name, used to tell vertex (<code>.vsh</code>) and fragment (<code>.fsh</code>) shaders apart.
+     * @param text The shader source.
+     * @return The patched source, or the input unchanged if there was nothing to inject.
+     */
+    public static String inject(String fileName, String text) {
+        String nl = text.contains("\r\n") ? "\r\n" : "\n";
+
+        if (fileName.endsWith(".vsh")) {
+            text = insertImport(text, VSH_IMPORT, nl);
+            text = ensureGlobals(text, nl);
+            return injectVertexMain(text, nl);
+        }
+        if (fileName.endsWith(".fsh")) {
+            text = insertImport(text, FSH_IMPORT, nl);
+            text = ensureGlobals(text, nl);
+            return injectFragmentMain(text, nl);
+        }
+        return text;
+    }
+
+    /** Inserts the import after the <code>#version</code>/<code>#moj_import</code> header. */
+    private static String insertImport(String text, String importLine, String nl) {
+        if (text.contains(importLine)) return text;
+
+        String[] lines = text.split("(?<=\n)");
+        int insertAt = -1;
+        boolean sawVersion = false;
+
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i].stripLeading();
+            if (line.startsWith("#version")) {
+                sawVersion = true;
+                continue;
+            }
+            if (sawVersion) {
+                if (line.startsWith("#moj_import")) continue;
+                insertAt = i;
+                break;
+            }
+        }
+
+        if (insertAt == -1) insertAt = lines.length > 0 ? 1 : 0;
+        return insertLine(lines, insertAt, importLine + nl);
+    }
+
+    /** Adds the <code>Globals</code> block unless the shader already declares or imports it. */
+    private static String ensureGlobals(String text, String nl) {
+        if (GLOBALS.matcher(text).find() && text.contains("GameTime")) return text;
+        // 1.21.11 ships the block as an include; declaring it again would not compile
+        if (text.contains("#moj_import <minecraft:globals.glsl>")) return text;
+
+        String[] lines = text.split("(?<=\n)");
+        int insertAt = -1;
+        int lastImport = -1;
+        boolean sawVersion = false;
+
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i].stripLeading();
+            if (line.startsWith("#version")) sawVersion = true;
+            if (sawVersion && line.startsWith("#moj_import")) lastImport = i;
+
+            if (sawVersion && !line.startsWith("#version") && !line.startsWith("#moj_import")) {
+                insertAt = lastImport != -1 ? lastImport + 1 : i;
+                break;
+            }
+        }
+
+        if (insertAt == -1) insertAt = lastImport != -1 ? lastImport + 1 : 0;
+        return insertLine(lines, insertAt, GLOBALS_BLOCK.replace("\n", nl) + nl);
+    }
+
+    /** Routes the first <code>gl_Position</code> assignment in <code>main()</code> through the vertex effects. */
+    private static String injectVertexMain(String text, String nl) {
+        if (text.contains("eg_apply_vertex_effects")) return text;
+
+        int[] span = findMainSpan(text);
+        if (span == null) return text;
+        String body = text.substring(span[0], span[1]);
+
+        Matcher m = GL_POSITION.matcher(body);
+        if (!m.find()) return text;
+
+        String replacement = VERT_SNIPPET.formatted(m.group(1), m.group(2).strip()).replace("\n", nl);
+        String newBody = body.substring(0, m.start()) + replacement + body.substring(m.end());
+        return text.substring(0, span[0]) + newBody + text.substring(span[1]);
+    }
+
+    /** Applies the fragment effects right after <code>color</code> is first computed in <code>main()</code>. */
+    private static String injectFragmentMain(String text, String nl) {
+        if (text.contains("eg_apply_fragment_effects")) return text;
+
+        int[] span = findMainSpan(text);
+        if (span == null) return text;
+        String body = text.substring(span[0], span[1]);
+
+        // screenUV already present; avoid duplicating
+        if (SCREEN_UV.matcher(body).find()) return text;
+
+        Matcher m = COLOR_DECL.matcher(body);
+        if (!m.find()) {
+            m = COLOR_ASSIGN.matcher(body);
+            if (!m.find()) return text;
+        }
+
+        String snippet = nl + FRAG_SNIPPET.formatted(m.group(1)).replace("\n", nl);
+        String newBody = body.substring(0, m.end()) + snippet + body.substring(m.end());
+        return text.substring(0, span[0]) + newBody + text.substring(span[1]);
+    }
+
+    /** Returns [open brace, matching close brace + 1] of <code>main()</code>, or null if not found. */
+    private static int[] findMainSpan(String text) {
+        Matcher m = MAIN.matcher(text);
+        if (!m.find()) return null;
+
+        int open = text.indexOf('{', m.start());
+        int depth = 0;
+        for (int i = open; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '{') {
+                depth++;
+            } else if (c == '}' && --depth == 0) {
+                return new int[]{open, i + 1};
+            }
+        }
+        return null;
+    }
+
+    private static String insertLine(String[] lines, int index, String toInsert) {
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < lines.length; i++) {
+            if (i == index) out.append(toInsert);
+            out.append(lines[i]);
+        }
+        if (index >= lines.length) out.append(toInsert);
+        return out.toString();
+    }
+}
@@ -0,0 +1,181 @@
+package com.seailz.flaps.pack;
+
+import com.seailz.flaps.FlapsEffect;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Specializes the Flaps shader includes for a fixed set of effects.
+ *
+ * <p>The include files in the resource pack wrap each effect in an <code>#ifdef EG_EFFECT_&lt;ID&gt;</code> block and
+ * list the enabled effects between the <code>@eg-effects-begin</code>/<code>@eg-effects-end</code> markers. This class
+ * rewrites that list and strips the blocks of every effect that isn't used, so clients only compile and run the
+ * effects a server actually uses.
+ */
+public final class FlapsShaderSpecializer {
+    public static final String GATES_BEGIN = "// @eg-effects-begin";
+    public static final String GATES_END = "// @eg-effects-end";
+    public static final String DEFINE_PREFIX = "EG_EFFECT_";
+
+    /** Includes that carry effect gates, relative to the pack root. */
+    public static final List<String> INCLUDES = List.of(
+            "assets/elytraglide/shaders/include/eg_effects_vertex.glsl",
+            "assets/elytraglide/shaders/include/eg_effects_fragment.glsl"
+    );
+
+    private FlapsShaderSpecializer() {}
+
+    /** The preprocessor define that gates an effect, e.g. <code>EG_EFFECT_ROLL</code>. */
+    public static String defineFor(FlapsEffect effect) {
+        return DEFINE_PREFIX + effect.id().toUpperCase(Locale.ROOT).replaceAll("[^A-Z0-9_]", "_");
+    }
+
+    /**
+     * Specializes a single include for the given effects.
+     * @param source The include source, containing the effect gate markers.
+     * @param effects The effects to keep.
+     * @return The source with the gate list rewritten and unused effect blocks removed.
+     */
+    public static String specialize(String source, Collection<FlapsEffect> effects) {
+        Set<String> defines = new TreeSet<>();
+        for (FlapsEffect effect : effects) {
+            defines.add(defineFor(effect));
+        }
+
+        String nl = source.contains("\r\n") ? "\r\n" : "\n";
+        String[] lines = source.split("\r?\n", -1);
+        StringBuilder out = new StringBuilder(source.length());
+
+        // One entry per open #if, so effect gates can be told apart from the conditionals we keep verbatim
+        Deque<Frame> gates = new ArrayDeque<>();
+        int dropping = 0;
+        boolean inGateList = false;
+        boolean sawGateList = false;
+
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i];
+            String trimmed = line.trim();
+
+            if (trimmed.equals(GATES_BEGIN)) {
+                inGateList = true;
+                sawGateList = true;
+                appendLine(out, line, nl);
+                for (String define : defines) {
+                    appendLine(out, "#define " + define, nl);
+                }
+                continue;
+            }
+            if (inGateList) {
+                if (trimmed.equals(GATES_END)) {
+                    inGateList = false;
+                    appendLine(out, line, nl);
+                }
+                continue;
+            }
+
+            String gate = gateName(trimmed);
+            if (gate != null) {
+                boolean keep = defines.contains(gate) != trimmed.startsWith("#ifndef");
+                gates.push(keep ? Frame.KEEP : Frame.DROP);
+                if (!keep) dropping++;
+                continue;
+            }
+
+            if (trimmed.startsWith("#if")) {
+                gates.push(Frame.FOREIGN);
+            } else if (trimmed.startsWith("#else") && !gates.isEmpty() && gates.peek() != Frame.FOREIGN) {
+                boolean keep = gates.pop() == Frame.DROP;
+                dropping += keep ? -1 : 1;
+                gates.push(keep ? Frame.KEEP : Frame.DROP);
+                continue;
+            } else if (trimmed.startsWith("#endif") && !gates.isEmpty()) {
+                Frame top = gates.pop();
+                if (top != Frame.FOREIGN) {
+                    if (top == Frame.DROP) dropping--;
+                    continue;
+                }
+            }
+
+            if (dropping == 0) {
+                // Avoid a trailing separator on the last line so output round-trips the input
+                if (i == lines.length - 1) out.append(line);
+                else appendLine(out, line, nl);
+            }
+        }
+
+        if (!sawGateList || inGateList) {
+            throw new IllegalArgumentException("Source is missing the " + GATES_BEGIN + " / " + GATES_END + " markers");
+        }
+        if (!gates.isEmpty()) {
+            throw new IllegalArgumentException("Unterminated #if in shader source");
+        }
+        return out.toString();
+    }
+
+    /**
+     * Writes specialized copies of every gated include in a pack.
+     * @param packRoot The source pack, e.g. <code>resourcepack/1.21.8</code>.
+     * @param outRoot Where to write the includes, using the same relative paths. May equal packRoot to rewrite in place.
+     * @param effects The effects to keep.
+     */
+    public static void specializePack(Path packRoot, Path outRoot, Collection<FlapsEffect> effects) throws IOException {
+        for (String include : INCLUDES) {
+            Path in = packRoot.resolve(include);
+            if (!Files.isRegularFile(in)) continue;
+
+            String specialized = specialize(Files.readString(in, StandardCharsets.UTF_8), effects);
+            Path out = outRoot.resolve(include);
+            Files.createDirectories(out.getParent());
+            Files.writeString(out, specialized, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Command line entry point for pack builds.
+     * <p>Usage: <code>FlapsShaderSpecializer &lt;packDir&gt; &lt;outDir&gt; &lt;EFFECT | ID:bit&gt;...</code>. Built-in effects
+     * are given by id, custom ones as <code>ID:bit</code> (see {@link FlapsEffect#parse(String)}). At least one effect
+     * is required.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: FlapsShaderSpecializer <packDir> <outDir> <EFFECT | ID:bit>...");
+            System.exit(1);
+            return;
+        }
+
+        List<FlapsEffect> effects = new ArrayList<>();
+        for (int i = 2; i < args.length; i++) {
+            effects.add(FlapsEffect.parse(args[i]));
+        }
+
+        specializePack(Path.of(args[0]), Path.of(args[1]), effects);
+    }
+
+    /** Returns the define tested by an effect gate (<code>#ifdef</code>/<code>#ifndef EG_EFFECT_*</code>), or null. */
+    private static String gateName(String trimmed) {
+        String rest;
+        if (trimmed.startsWith("#ifdef")) rest = trimmed.substring("#ifdef".length());
+        else if (trimmed.startsWith("#ifndef")) rest = trimmed.substring("#ifndef".length());
+        else return null;
+
+        rest = rest.trim();
+        return rest.startsWith(DEFINE_PREFIX) ? rest : null;
+    }
+
+    private enum Frame { FOREIGN, KEEP, DROP }
+
+    private static void appendLine(StringBuilder out, String line, String nl) {
+        out.append(line).append(nl);
+    }
+}